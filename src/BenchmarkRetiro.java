@@ -0,0 +1,55 @@
+/**
+ * Clase BenchmarkRetiro: mide el costo del MotorFraude en el camino de Cuenta.retirar, comparando el tiempo por retiro con el motor apagado y encendido. Ambas mediciones incluyen el costo de RegistroOperaciones, asi la diferencia es solo el motor.
+ * Uso: java BenchmarkRetiro [cuentas] [rondas]
+ */
+public class BenchmarkRetiro {
+
+    public static void main(String[] args) throws Exception {
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int rondas = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        // Reloj virtual: cada ronda avanza un minuto, asi cada cuenta hace un retiro por minuto y el motor nunca bloquea
+        long[] ahora = {0L};
+        MotorFraude.setReloj(() -> ahora[0]);
+
+        // Calentamiento para que el JIT compile ambos caminos
+        medir(false, cuentas, rondas, ahora);
+        medir(true, cuentas, rondas, ahora);
+
+        double sinMotor = medir(false, cuentas, rondas, ahora);
+        double conMotor = medir(true, cuentas, rondas, ahora);
+
+        System.out.printf("Retiros por corrida:      %,d%n", (long) cuentas * rondas);
+        System.out.printf("Sin motor de fraude:      %.1f ns/retiro%n", sinMotor);
+        System.out.printf("Con motor de fraude:      %.1f ns/retiro%n", conMotor);
+        System.out.printf("Costo del motor:          %.1f ns/retiro%n", conMotor - sinMotor);
+        System.out.printf("Fuera de presupuesto:     %,d evaluaciones%n", MotorFraude.getEvaluacionesFueraDePresupuesto());
+    }
+
+    // Devuelve el tiempo promedio en nanosegundos por retiro
+    private static double medir(boolean motor, int cuentas, int rondas, long[] ahora) throws Exception {
+        MotorFraude.reiniciar();
+        MotorFraude.setHabilitado(motor);
+        Cuenta[] lista = new Cuenta[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            lista[i] = new CuentaAhorros(String.valueOf(100_000 + i), "1234", Double.MAX_VALUE);
+        }
+
+        // Los retiros pasan por RegistroOperaciones con un identificador por ronda; el registro se vacía entre rondas fuera de la medición
+        String[] ids = new String[rondas];
+        for (int r = 0; r < rondas; r++) {
+            ids[r] = "bench-" + r;
+        }
+        long total = 0;
+        for (int r = 0; r < rondas; r++) {
+            RegistroOperaciones.reiniciar();
+            long inicio = System.nanoTime();
+            for (Cuenta c : lista) {
+                c.retirar(ids[r], 50_000);
+            }
+            total += System.nanoTime() - inicio;
+            ahora[0] += 60_000L;
+        }
+        return (double) total / ((long) cuentas * rondas);
+    }
+}
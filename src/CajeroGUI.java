@@ -1,28 +1,174 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.UUID;
 
 /**
- * Clase CajeroGUI: maneja ventanas independientes para cada pantalla dependiendo del flujo de las acciones del usuario.
+ * Clase CajeroGUI: maneja una sola ventana con un CardLayout, cada pantalla se construye la primera vez que se necesita y luego se reutiliza reiniciando su estado.
+ * Con -Dcajero.perfil=true imprime el tiempo hasta la primera pantalla, las clases cargadas y lo que tarda en construirse cada pantalla.
+ * Con -Dcajero.salir=true construye todas las pantallas y termina, sirve para generar el archivo de AppCDS (ver README).
  */
 public class CajeroGUI {
 
+    private static final String BIENVENIDA = "bienvenida";
+    private static final String REGISTRO = "registro";
+    private static final String LOGIN = "login";
+    private static final String MENU = "menu";
+    private static final String CONSULTA = "consulta";
+    private static final String DEPOSITO = "deposito";
+    private static final String RETIRO = "retiro";
+    private static final String PAGO = "pago";
+    private static final String[] TODAS = {BIENVENIDA, REGISTRO, LOGIN, MENU, CONSULTA, DEPOSITO, RETIRO, PAGO};
+
+    // Fuentes compartidas por todas las pantallas
+    private static final Font FUENTE_TITULO = new Font("SansSerif", Font.BOLD, 16);
+    private static final Font FUENTE_SUBTITULO = new Font("SansSerif", Font.BOLD, 15);
+    private static final Font FUENTE_ETIQUETA = new Font("SansSerif", Font.BOLD, 14);
+    private static final Font FUENTE_TEXTO = new Font("SansSerif", Font.PLAIN, 14);
+    private static final Font FUENTE_SALDO = new Font("Monospaced", Font.PLAIN, 18);
+
+    private final boolean perfil = Boolean.getBoolean("cajero.perfil");
+    private final HashMap<String, Pantalla> pantallas = new HashMap<>();
+    private JFrame ventana;
+    private CardLayout tarjetas;
+    private JPanel contenedor;
+    private Usuario usuario; // usuario con sesión iniciada, null si no hay sesión
+    private boolean pintado; // si ya se dibujó la primera pantalla
+
     public CajeroGUI() {
-        // Muestra la ventana de Bienvenida(Welcome)
-        SwingUtilities.invokeLater(() -> new WelcomeFrame());
+        // Crea la ventana y muestra la pantalla de Bienvenida(Welcome)
+        SwingUtilities.invokeLater(() -> {
+            ventana = new JFrame();
+            ventana.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            tarjetas = new CardLayout();
+            contenedor = new JPanel(tarjetas);
+            ventana.setContentPane(contenedor);
+            mostrar(BIENVENIDA);
+            ventana.setVisible(true);
+        });
+    }
+
+    // Se llama desde el primer paintComponent de la pantalla inicial, cuando la primera pantalla ya se dibujó
+    private void primerPintado() {
+        if (perfil) {
+            imprimirPerfilArranque();
+        }
+        if (Boolean.getBoolean("cajero.salir")) {
+            SwingUtilities.invokeLater(() -> {
+                for (String nombre : TODAS) {
+                    obtenerPantalla(nombre);
+                }
+                System.exit(0);
+            });
+        }
+    }
+
+    // Muestra una pantalla construyéndola solo la primera vez y reiniciando su estado
+    private void mostrar(String nombre) {
+        Pantalla pantalla = obtenerPantalla(nombre);
+        pantalla.reiniciar();
+        ventana.setTitle(pantalla.titulo());
+        ventana.setSize(pantalla.ancho, pantalla.alto);
+        ventana.setLocationRelativeTo(null);
+        tarjetas.show(contenedor, nombre);
+    }
+
+    private Pantalla obtenerPantalla(String nombre) {
+        Pantalla pantalla = pantallas.get(nombre);
+        if (pantalla == null) {
+            long inicio = System.nanoTime();
+            pantalla = crearPantalla(nombre);
+            contenedor.add(pantalla, nombre);
+            pantallas.put(nombre, pantalla);
+            if (perfil) {
+                System.out.printf("[perfil] pantalla %s construida en %.1f ms%n", nombre, (System.nanoTime() - inicio) / 1e6);
+            }
+        }
+        return pantalla;
+    }
+
+    private Pantalla crearPantalla(String nombre) {
+        switch (nombre) {
+            case BIENVENIDA: return new WelcomePanel();
+            case REGISTRO: return new RegisterPanel();
+            case LOGIN: return new LoginPanel();
+            case MENU: return new MenuPanel();
+            case CONSULTA: return new ConsultaPanel();
+            case DEPOSITO: return new DepositoPanel();
+            case RETIRO: return new RetiroPanel();
+            case PAGO: return new PagoPanel();
+            default: throw new IllegalArgumentException("Pantalla desconocida: " + nombre);
+        }
+    }
+
+    // Tiempo desde que arrancó la JVM hasta la primera pantalla y clases cargadas hasta ese momento
+    private void imprimirPerfilArranque() {
+        long arranqueJvm = ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.printf("[perfil] primera pantalla a los %d ms del arranque de la JVM%n", System.currentTimeMillis() - arranqueJvm);
+        System.out.printf("[perfil] clases cargadas: %d%n", ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+    }
+
+    private static GridBagConstraints crearConstraints() {
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(6,6,6,6);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        return gbc;
+    }
+
+    // ---------------------- Pantalla base ----------------------
+    private abstract class Pantalla extends JPanel {
+        private final int ancho;
+        private final int alto;
+
+        protected Pantalla(int ancho, int alto) {
+            this.ancho = ancho;
+            this.alto = alto;
+        }
+
+        abstract String titulo();
+
+        // Deja la pantalla como recién construida (campos vacíos, datos del usuario actual)
+        void reiniciar() {
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (!pintado) {
+                pintado = true;
+                primerPintado();
+            }
+        }
     }
 
-    // ---------------------- Welcome Frame ----------------------
-    private class WelcomeFrame extends JFrame {
-        public WelcomeFrame() {
-            setTitle("Banco XYZ - Cajero Automático");
-            setSize(450, 220);
-            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-            setLocationRelativeTo(null);
+    // ---------------------- Pantalla de operación ----------------------
+    // Base de las pantallas de depósito, retiro y pago. El identificador se genera en reiniciar() y no al construir,
+    // asi UUID (y SecureRandom) no se cargan en el arranque sino al abrir la primera operación.
+    private abstract class PantallaOperacion extends Pantalla {
+        // Identificador de operación del intento actual: se conserva mientras el intento no falle, asi repetirlo no aplica
+        // la operación dos veces. Tras una falla se genera uno nuevo (nuevoIdOperacion() después de los catch) para que
+        // el siguiente intento no reciba el error guardado; tras un éxito se sale de la pantalla y reiniciar() genera otro.
+        protected String idOperacion;
+
+        protected PantallaOperacion(int ancho, int alto) {
+            super(ancho, alto);
+        }
+
+        protected void nuevoIdOperacion() {
+            idOperacion = UUID.randomUUID().toString();
+        }
+    }
+
+    // ---------------------- Welcome Panel ----------------------
+    private class WelcomePanel extends Pantalla {
+        public WelcomePanel() {
+            super(450, 220);
             setLayout(new BorderLayout());
 
             JLabel lblBienvenido = new JLabel("Bienvenido al Cajero Automático del Banco XYZ", SwingConstants.CENTER);
-            lblBienvenido.setFont(new Font("SansSerif", Font.BOLD, 16));
+            lblBienvenido.setFont(FUENTE_TITULO);
             add(lblBienvenido, BorderLayout.NORTH);
 
             JPanel botonesPanel = new JPanel();
@@ -33,47 +179,33 @@ public class CajeroGUI {
             add(botonesPanel, BorderLayout.CENTER);
 
             // Eventos(Botones de acción)
-            btnRegistrar.addActionListener(e -> {
-                new RegisterFrame(this);
-                this.setVisible(false);
-            });
-
-            btnIniciar.addActionListener(e -> {
-                new LoginFrame(this);
-                this.setVisible(false);
-            });
+            btnRegistrar.addActionListener(e -> mostrar(REGISTRO));
+            btnIniciar.addActionListener(e -> mostrar(LOGIN));
+        }
 
-            setVisible(true);
+        String titulo() {
+            return "Banco XYZ - Cajero Automático";
         }
     }
 
-    // ---------------------- Register Frame ----------------------
-    private class RegisterFrame extends JFrame {
-        public RegisterFrame(JFrame parent) {
-            setTitle("Registro de Nuevo Usuario - Banco XYZ");
-            setSize(400, 420);
-            setLocationRelativeTo(null);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    // ---------------------- Register Panel ----------------------
+    private class RegisterPanel extends Pantalla {
+        private final JTextField tfNombre = new JTextField();
+        private final JTextField tfIdentificacion = new JTextField();
+        private final JPasswordField pfPin = new JPasswordField();
+        private final JComboBox<String> cbTipo = new JComboBox<>(new String[]{"Ahorros", "Corriente"});
+        private final JTextField tfSaldo = new JTextField();
+
+        public RegisterPanel() {
+            super(400, 420);
             setLayout(new GridBagLayout());
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(6,6,6,6);
-            gbc.fill = GridBagConstraints.HORIZONTAL;
+            GridBagConstraints gbc = crearConstraints();
 
             JLabel lblNombre = new JLabel("Nombre completo:");
-            JTextField tfNombre = new JTextField();
-
             JLabel lblIdentificacion = new JLabel("Número de identificación:");
-            JTextField tfIdentificacion = new JTextField();
-
             JLabel lblPin = new JLabel("PIN (4 dígitos):");
-            JPasswordField pfPin = new JPasswordField();
-
             JLabel lblTipo = new JLabel("Tipo de cuenta:");
-            String[] tipos = {"Ahorros", "Corriente"};
-            JComboBox<String> cbTipo = new JComboBox<>(tipos);
-
             JLabel lblSaldo = new JLabel("Saldo inicial:");
-            JTextField tfSaldo = new JTextField();
 
             JButton btnRegistrar = new JButton("Registrar");
             JButton btnCancelar = new JButton("Cancelar");
@@ -98,7 +230,7 @@ public class CajeroGUI {
             botones.add(btnCancelar);
             gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2; add(botones, gbc);
 
-            // Evento del boton registrar(Frame nueva)
+            // Evento del boton registrar
             btnRegistrar.addActionListener(ev -> {
                 try {
                     String nombre = tfNombre.getText().trim();
@@ -162,9 +294,8 @@ public class CajeroGUI {
                             "Registro exitoso",
                             JOptionPane.INFORMATION_MESSAGE);
 
-                    // Volver al WelcomeFrame
-                    this.dispose();
-                    new WelcomeFrame();
+                    // Volver a la pantalla de Bienvenida
+                    mostrar(BIENVENIDA);
 
                 } catch (EntradaInvalidaException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Error de entrada", JOptionPane.ERROR_MESSAGE);
@@ -173,33 +304,35 @@ public class CajeroGUI {
                 }
             });
 
-            btnCancelar.addActionListener(ev -> {
-                this.dispose();
-                new WelcomeFrame();
-            });
+            btnCancelar.addActionListener(ev -> mostrar(BIENVENIDA));
+        }
+
+        String titulo() {
+            return "Registro de Nuevo Usuario - Banco XYZ";
+        }
 
-            setVisible(true);
+        void reiniciar() {
+            tfNombre.setText("");
+            tfIdentificacion.setText("");
+            pfPin.setText("");
+            cbTipo.setSelectedIndex(0);
+            tfSaldo.setText("");
         }
     }
 
 
-    // ---------------------- Login Frame ----------------------
-    private class LoginFrame extends JFrame {
-        public LoginFrame(JFrame parent) {
-            setTitle("Iniciar Sesión - Banco XYZ");
-            setSize(380, 220);
-            setLocationRelativeTo(null);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    // ---------------------- Login Panel ----------------------
+    private class LoginPanel extends Pantalla {
+        private final JTextField tfCuenta = new JTextField();
+        private final JPasswordField pfPin = new JPasswordField();
+
+        public LoginPanel() {
+            super(380, 220);
             setLayout(new GridBagLayout());
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(6,6,6,6);
-            gbc.fill = GridBagConstraints.HORIZONTAL;
+            GridBagConstraints gbc = crearConstraints();
 
             JLabel lblCuenta = new JLabel("Número de cuenta:");
-            JTextField tfCuenta = new JTextField();
-
             JLabel lblPin = new JLabel("PIN:");
-            JPasswordField pfPin = new JPasswordField();
 
             JButton btnIngresar = new JButton("Ingresar");
             JButton btnCancelar = new JButton("Cancelar");
@@ -225,10 +358,9 @@ public class CajeroGUI {
                         throw new EntradaInvalidaException("Debe ingresar número de cuenta y PIN.");
                     }
 
-                    Usuario usuario = Banco.autenticar(numero, pin);
-                    // Abrir menu principal pasando el usuario autenticado
-                    new MenuFrame(usuario);
-                    this.dispose();
+                    // Abrir menu principal con el usuario autenticado
+                    usuario = Banco.autenticar(numero, pin);
+                    mostrar(MENU);
 
                 } catch (EntradaInvalidaException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Entrada inválida", JOptionPane.ERROR_MESSAGE);
@@ -239,25 +371,26 @@ public class CajeroGUI {
                 }
             });
 
-            btnCancelar.addActionListener(ev -> {
-                this.dispose();
-                new WelcomeFrame();
-            });
+            btnCancelar.addActionListener(ev -> mostrar(BIENVENIDA));
+        }
 
-            setVisible(true);
+        String titulo() {
+            return "Iniciar Sesión - Banco XYZ";
+        }
+
+        void reiniciar() {
+            tfCuenta.setText("");
+            pfPin.setText("");
         }
     }
 
-    // ---------------------- Menu Frame ----------------------
-    private class MenuFrame extends JFrame {
-        private Usuario usuario;
+    // ---------------------- Menu Panel ----------------------
+    private class MenuPanel extends Pantalla {
+        private final JLabel lblHola = new JLabel("", SwingConstants.CENTER);
+        private final JLabel lblTipoCuenta = new JLabel("", SwingConstants.CENTER);
 
-        public MenuFrame(Usuario usuario) {
-            this.usuario = usuario;
-            setTitle("Menú Principal - Banco XYZ");
-            setSize(500, 350);
-            setLocationRelativeTo(null);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        public MenuPanel() {
+            super(500, 350);
             setLayout(new BorderLayout());
 
             // Panel superior con saludo y tipo de cuenta
@@ -265,20 +398,11 @@ public class CajeroGUI {
             panelSuperior.setLayout(new GridLayout(3, 1));
             panelSuperior.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-            JLabel lblHola = new JLabel("Hola, " + usuario.getNombre(), SwingConstants.CENTER);
-            lblHola.setFont(new Font("SansSerif", Font.BOLD, 16));
-
-            String tipoCuenta = (usuario.getCuenta() instanceof CuentaAhorros)
-                    ? "Cuenta de Ahorros"
-                    : "Cuenta Corriente";
-
-            JLabel lblTipoCuenta = new JLabel(
-                    "Tipo: " + tipoCuenta + " - " + usuario.getCuenta().getNumeroCuenta(),
-                    SwingConstants.CENTER);
-            lblTipoCuenta.setFont(new Font("SansSerif", Font.PLAIN, 14));
+            lblHola.setFont(FUENTE_TITULO);
+            lblTipoCuenta.setFont(FUENTE_TEXTO);
 
             JLabel lblOperacion = new JLabel("Seleccione una operación:", SwingConstants.CENTER);
-            lblOperacion.setFont(new Font("SansSerif", Font.BOLD, 15));
+            lblOperacion.setFont(FUENTE_SUBTITULO);
 
             panelSuperior.add(lblHola);
             panelSuperior.add(lblTipoCuenta);
@@ -302,63 +426,78 @@ public class CajeroGUI {
             add(botones, BorderLayout.CENTER);
 
             // Eventos de botones
-            btnConsultar.addActionListener(ev -> new ConsultaFrame(this, usuario));
-            btnDepositar.addActionListener(ev -> new DepositoFrame(this, usuario));
-            btnRetirar.addActionListener(ev -> new RetiroFrame(this, usuario));
-            btnPagar.addActionListener(ev -> new PagoFrame(this, usuario));
+            btnConsultar.addActionListener(ev -> mostrar(CONSULTA));
+            btnDepositar.addActionListener(ev -> mostrar(DEPOSITO));
+            btnRetirar.addActionListener(ev -> mostrar(RETIRO));
+            btnPagar.addActionListener(ev -> mostrar(PAGO));
 
             btnSalir.addActionListener(ev -> {
                 JOptionPane.showMessageDialog(this,
                         "Su sesión fue cerrada.\nGracias por utilizar los servicios del Banco XYZ.",
                         "Sesión cerrada",
                         JOptionPane.INFORMATION_MESSAGE);
-                this.dispose();
-                new WelcomeFrame();
+                usuario = null;
+                mostrar(BIENVENIDA);
             });
+        }
 
-            setVisible(true);
+        String titulo() {
+            return "Menú Principal - Banco XYZ";
+        }
+
+        void reiniciar() {
+            if (usuario == null) {
+                return;
+            }
+            String tipoCuenta = (usuario.getCuenta() instanceof CuentaAhorros)
+                    ? "Cuenta de Ahorros"
+                    : "Cuenta Corriente";
+            lblHola.setText("Hola, " + usuario.getNombre());
+            lblTipoCuenta.setText("Tipo: " + tipoCuenta + " - " + usuario.getCuenta().getNumeroCuenta());
         }
     }
 
-    // ---------------------- Consulta Frame ----------------------
-    private class ConsultaFrame extends JFrame {
-        public ConsultaFrame(JFrame parent, Usuario usuario) {
-            setTitle("Consultar Saldo - Cuenta: " + usuario.getCuenta().getNumeroCuenta());
-            setSize(400, 180);
-            setLocationRelativeTo(parent);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    // ---------------------- Consulta Panel ----------------------
+    private class ConsultaPanel extends Pantalla {
+        private final JLabel lblSaldo = new JLabel("", SwingConstants.CENTER);
+
+        public ConsultaPanel() {
+            super(400, 180);
             setLayout(new BorderLayout(10,10));
 
             JLabel lblTitulo = new JLabel("Saldo actual", SwingConstants.CENTER);
-            lblTitulo.setFont(new Font("SansSerif", Font.BOLD, 14));
+            lblTitulo.setFont(FUENTE_ETIQUETA);
             add(lblTitulo, BorderLayout.NORTH);
 
-            JLabel lblSaldo = new JLabel("$ " + usuario.getCuenta().consultarSaldoFormateado(), SwingConstants.CENTER);
-            lblSaldo.setFont(new Font("Monospaced", Font.PLAIN, 18));
+            lblSaldo.setFont(FUENTE_SALDO);
             add(lblSaldo, BorderLayout.CENTER);
 
             JButton btnCerrar = new JButton("Cerrar");
-            btnCerrar.addActionListener(e -> this.dispose());
+            btnCerrar.addActionListener(e -> mostrar(MENU));
             add(btnCerrar, BorderLayout.SOUTH);
+        }
 
-            setVisible(true);
+        String titulo() {
+            return "Consultar Saldo - Cuenta: " + (usuario == null ? "" : usuario.getCuenta().getNumeroCuenta());
+        }
+
+        void reiniciar() {
+            if (usuario != null) {
+                lblSaldo.setText("$ " + usuario.getCuenta().consultarSaldoFormateado());
+            }
         }
     }
 
-    // ---------------------- Deposito Frame ----------------------
-    private class DepositoFrame extends JFrame {
-        public DepositoFrame(JFrame parent, Usuario usuario) {
-            setTitle("Depositar - Cuenta: " + usuario.getCuenta().getNumeroCuenta());
-            setSize(400, 200);
-            setLocationRelativeTo(parent);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    // ---------------------- Deposito Panel ----------------------
+    private class DepositoPanel extends PantallaOperacion {
+        private final JTextField tfMonto = new JTextField();
+
+        public DepositoPanel() {
+            super(400, 200);
             setLayout(new GridBagLayout());
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(6,6,6,6);
-            gbc.fill = GridBagConstraints.HORIZONTAL;
+            GridBagConstraints gbc = crearConstraints();
 
             JLabel lblMonto = new JLabel("Monto a depositar:");
-            JTextField tfMonto = new JTextField();
 
             JButton btnAceptar = new JButton("Depositar");
             JButton btnCancelar = new JButton("Cancelar");
@@ -381,39 +520,45 @@ public class CajeroGUI {
                         throw new EntradaInvalidaException("Monto inválido.");
                     }
 
-                    usuario.getCuenta().depositar(monto);
+                    usuario.getCuenta().depositar(idOperacion, monto);
                     JOptionPane.showMessageDialog(this,
                             "Depósito exitoso. Saldo actual: $ " + usuario.getCuenta().consultarSaldoFormateado(),
                             "Depósito",
                             JOptionPane.INFORMATION_MESSAGE);
-                    this.dispose();
+                    mostrar(MENU);
+                    return;
 
                 } catch (EntradaInvalidaException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(this, "Error inesperado: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                 }
+                nuevoIdOperacion();
             });
 
-            btnCancelar.addActionListener(e -> this.dispose());
-            setVisible(true);
+            btnCancelar.addActionListener(e -> mostrar(MENU));
+        }
+
+        String titulo() {
+            return "Depositar - Cuenta: " + (usuario == null ? "" : usuario.getCuenta().getNumeroCuenta());
+        }
+
+        void reiniciar() {
+            tfMonto.setText("");
+            nuevoIdOperacion();
         }
     }
 
-    // ---------------------- Retiro Frame ----------------------
-    private class RetiroFrame extends JFrame {
-        public RetiroFrame(JFrame parent, Usuario usuario) {
-            setTitle("Retirar - Cuenta: " + usuario.getCuenta().getNumeroCuenta());
-            setSize(420, 220);
-            setLocationRelativeTo(parent);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    // ---------------------- Retiro Panel ----------------------
+    private class RetiroPanel extends PantallaOperacion {
+        private final JTextField tfMonto = new JTextField();
+
+        public RetiroPanel() {
+            super(420, 220);
             setLayout(new GridBagLayout());
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(6,6,6,6);
-            gbc.fill = GridBagConstraints.HORIZONTAL;
+            GridBagConstraints gbc = crearConstraints();
 
             JLabel lblMonto = new JLabel("Monto a retirar:");
-            JTextField tfMonto = new JTextField();
 
             JButton btnAceptar = new JButton("Retirar");
             JButton btnCancelar = new JButton("Cancelar");
@@ -436,45 +581,51 @@ public class CajeroGUI {
                         throw new EntradaInvalidaException("Monto inválido.");
                     }
 
-                    usuario.getCuenta().retirar(monto);
+                    usuario.getCuenta().retirar(idOperacion, monto);
                     JOptionPane.showMessageDialog(this,
                             "Retiro exitoso. Saldo actual: $ " + usuario.getCuenta().consultarSaldoFormateado(),
                             "Retiro",
                             JOptionPane.INFORMATION_MESSAGE);
-                    this.dispose();
+                    mostrar(MENU);
+                    return;
 
                 } catch (EntradaInvalidaException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Error de entrada", JOptionPane.ERROR_MESSAGE);
                 } catch (SaldoInsuficienteException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Saldo insuficiente", JOptionPane.ERROR_MESSAGE);
+                } catch (OperacionSospechosaException ex) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Operación bloqueada", JOptionPane.ERROR_MESSAGE);
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(this, "Error inesperado: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                 }
+                nuevoIdOperacion();
             });
 
-            btnCancelar.addActionListener(e -> this.dispose());
-            setVisible(true);
+            btnCancelar.addActionListener(e -> mostrar(MENU));
+        }
+
+        String titulo() {
+            return "Retirar - Cuenta: " + (usuario == null ? "" : usuario.getCuenta().getNumeroCuenta());
+        }
+
+        void reiniciar() {
+            tfMonto.setText("");
+            nuevoIdOperacion();
         }
     }
 
-    // ---------------------- Pago Frame ----------------------
-    private class PagoFrame extends JFrame {
-        public PagoFrame(JFrame parent, Usuario usuario) {
-            setTitle("Pago de Servicios - Cuenta: " + usuario.getCuenta().getNumeroCuenta());
-            setSize(450, 250);
-            setLocationRelativeTo(parent);
-            setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    // ---------------------- Pago Panel ----------------------
+    private class PagoPanel extends PantallaOperacion {
+        private final JComboBox<String> cbServicios = new JComboBox<>(new String[]{"Agua", "Luz", "Internet", "Telefonía"});
+        private final JTextField tfMonto = new JTextField();
+
+        public PagoPanel() {
+            super(450, 250);
             setLayout(new GridBagLayout());
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(6,6,6,6);
-            gbc.fill = GridBagConstraints.HORIZONTAL;
+            GridBagConstraints gbc = crearConstraints();
 
             JLabel lblServicio = new JLabel("Servicio:");
-            String[] servicios = {"Agua", "Luz", "Internet", "Telefonía"};
-            JComboBox<String> cbServicios = new JComboBox<>(servicios);
-
             JLabel lblMonto = new JLabel("Monto a pagar:");
-            JTextField tfMonto = new JTextField();
 
             JButton btnPagar = new JButton("Pagar");
             JButton btnCancelar = new JButton("Cancelar");
@@ -502,24 +653,37 @@ public class CajeroGUI {
                         throw new EntradaInvalidaException("Monto inválido.");
                     }
 
-                    usuario.getCuenta().pagarServicio(monto, servicio);
+                    usuario.getCuenta().pagarServicio(idOperacion, monto, servicio);
                     JOptionPane.showMessageDialog(this,
                             "Pago de " + servicio + " realizado.\nSaldo actual: $ " + usuario.getCuenta().consultarSaldoFormateado(),
                             "Pago exitoso",
                             JOptionPane.INFORMATION_MESSAGE);
-                    this.dispose();
+                    mostrar(MENU);
+                    return;
 
                 } catch (EntradaInvalidaException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Error de entrada", JOptionPane.ERROR_MESSAGE);
                 } catch (SaldoInsuficienteException ex) {
                     JOptionPane.showMessageDialog(this, ex.getMessage(), "Saldo insuficiente", JOptionPane.ERROR_MESSAGE);
+                } catch (OperacionSospechosaException ex) {
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Operación bloqueada", JOptionPane.ERROR_MESSAGE);
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(this, "Error inesperado: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                 }
+                nuevoIdOperacion();
             });
 
-            btnCancelar.addActionListener(e -> this.dispose());
-            setVisible(true);
+            btnCancelar.addActionListener(e -> mostrar(MENU));
+        }
+
+        String titulo() {
+            return "Pago de Servicios - Cuenta: " + (usuario == null ? "" : usuario.getCuenta().getNumeroCuenta());
+        }
+
+        void reiniciar() {
+            cbServicios.setSelectedIndex(0);
+            tfMonto.setText("");
+            nuevoIdOperacion();
         }
     }
 }
@@ -22,43 +22,83 @@ public abstract class Cuenta {
         return pin;
     }
 
-    public double getSaldo() {
+    public synchronized double getSaldo() {
         return saldo;
     }
 
     // Consultar saldo (formateado)
-    public String consultarSaldoFormateado() {
+    public synchronized String consultarSaldoFormateado() {
         DecimalFormat df = new DecimalFormat("#,##0.00");
         return df.format(saldo);
     }
 
-    // Depositar
-    public void depositar(double monto) throws EntradaInvalidaException {
+    // Depositar (solo se usa a través de la versión con identificador de operación). Devuelve el saldo resultante.
+    // Los débitos y créditos son synchronized: validación, motor de fraude, cambio del saldo y saldo devuelto forman un solo paso.
+    private synchronized double depositar(double monto) throws EntradaInvalidaException {
         if (monto <= 0) {
             throw new EntradaInvalidaException("El monto a depositar debe ser mayor que 0.");
         }
         saldo += monto;
+        return saldo;
     }
 
-    // Retirar (puede lanzar SaldoInsuficienteException)
-    public void retirar(double monto) throws SaldoInsuficienteException, EntradaInvalidaException {
+    // Retirar (puede lanzar SaldoInsuficienteException u OperacionSospechosaException)
+    private synchronized double retirar(double monto) throws SaldoInsuficienteException, EntradaInvalidaException, OperacionSospechosaException {
         if (monto <= 0) {
             throw new EntradaInvalidaException("El monto a retirar debe ser mayor que 0.");
         }
         if (monto > saldo) {
             throw new SaldoInsuficienteException("Saldo insuficiente. Saldo actual: " + consultarSaldoFormateado());
         }
+        MotorFraude.evaluarYRegistrar(numeroCuenta, monto);
         saldo -= monto;
+        return saldo;
     }
 
     // Pagar servicio (misma validación que retirar)
-    public void pagarServicio(double monto, String servicio) throws SaldoInsuficienteException, EntradaInvalidaException {
+    private synchronized double pagarServicio(double monto, String servicio) throws SaldoInsuficienteException, EntradaInvalidaException, OperacionSospechosaException {
         if (monto <= 0) {
             throw new EntradaInvalidaException("El monto del pago debe ser mayor que 0.");
         }
         if (monto > saldo) {
             throw new SaldoInsuficienteException("Saldo insuficiente para pagar " + servicio + ". Saldo actual: " + consultarSaldoFormateado());
         }
+        MotorFraude.evaluarYRegistrar(numeroCuenta, monto);
         saldo -= monto;
+        return saldo;
+    }
+
+    // Depositar con identificador de operación: un reintento con el mismo identificador no vuelve a depositar y devuelve el saldo original
+    public double depositar(String idOperacion, double monto) throws EntradaInvalidaException {
+        try {
+            return ejecutarUnaVez(idOperacion, "deposito:" + monto, () -> depositar(monto));
+        } catch (SaldoInsuficienteException | OperacionSospechosaException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Retirar con identificador de operación
+    public double retirar(String idOperacion, double monto) throws SaldoInsuficienteException, EntradaInvalidaException, OperacionSospechosaException {
+        return ejecutarUnaVez(idOperacion, "retiro:" + monto, () -> retirar(monto));
+    }
+
+    // Pagar servicio con identificador de operación
+    public double pagarServicio(String idOperacion, double monto, String servicio) throws SaldoInsuficienteException, EntradaInvalidaException, OperacionSospechosaException {
+        return ejecutarUnaVez(idOperacion, "pago:" + servicio + ":" + monto, () -> pagarServicio(monto, servicio));
+    }
+
+    // Pasa la operación por RegistroOperaciones y relanza las excepciones propias de la cuenta
+    private double ejecutarUnaVez(String idOperacion, String huella, RegistroOperaciones.Operacion operacion)
+            throws SaldoInsuficienteException, EntradaInvalidaException, OperacionSospechosaException {
+        if (idOperacion == null || idOperacion.trim().isEmpty()) {
+            throw new EntradaInvalidaException("Falta el identificador de la operación.");
+        }
+        try {
+            return RegistroOperaciones.ejecutar(numeroCuenta + ":" + idOperacion, huella, operacion);
+        } catch (SaldoInsuficienteException | EntradaInvalidaException | OperacionSospechosaException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 }
@@ -0,0 +1,237 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase MotorFraude: evalúa en línea los retiros y pagos antes de debitar la cuenta. Por cada cuenta guarda una ventana deslizante de un minuto en un arreglo fijo de casillas y un promedio móvil de los montos, asi la memoria por cuenta no crece con el número de operaciones, y las ventanas de cuentas inactivas se descartan al superar MAX_CUENTAS. Las últimas operaciones marcadas se guardan en un registro acotado que se puede consultar.
+ */
+public class MotorFraude {
+
+    // Resultado de una evaluación que no se bloqueó; un bloqueo se indica solo con OperacionSospechosaException
+    public enum Decision { PERMITIR, MARCAR }
+
+    private static final int CASILLAS = 12;                     // 12 casillas de 5 segundos = ventana de 1 minuto
+    private static final long MILIS_POR_CASILLA = 5_000L;
+    private static final long MILIS_VENTANA = CASILLAS * MILIS_POR_CASILLA;
+    private static final int MAX_OPERACIONES_MINUTO = 5;        // a partir de aquí se bloquea
+    private static final double MAX_MONTO_MINUTO = 2_000_000;   // total debitado en un minuto que se marca
+    private static final int MUESTRAS_MINIMAS = 5;              // operaciones antes de confiar en el promedio
+    private static final double FACTOR_MONTO_MARCA = 5.0;       // monto 5 veces mayor al promedio se marca
+    private static final double FACTOR_MONTO_BLOQUEO = 20.0;    // monto 20 veces mayor al promedio se bloquea
+    private static final double ALFA = 0.2;                     // peso del último monto en el promedio móvil
+    private static final long PRESUPUESTO_NANOS = 200_000L;     // 0,2 ms por evaluación
+    private static final int MAX_MARCADAS = 1_000;              // últimas operaciones marcadas que se conservan
+    private static final int MAX_CUENTAS = 100_000;             // ventanas que se conservan antes de descartar las inactivas
+
+    private static final ConcurrentHashMap<String, VentanaCuenta> ventanas = new ConcurrentHashMap<>();
+    private static final ArrayDeque<OperacionMarcada> marcadas = new ArrayDeque<>();
+    private static final AtomicLong evaluacionesFueraDePresupuesto = new AtomicLong();
+    private static final AtomicLong proximoBarrido = new AtomicLong();
+    private static volatile LongSupplier reloj = System::currentTimeMillis;
+    private static volatile boolean habilitado = true;
+    private static long operacionesMarcadas; // protegido por marcadas
+
+    // Evalúa un débito y, si no se bloquea, lo registra en el mismo paso: asi dos débitos simultáneos de la misma cuenta no pasan ambos el límite por minuto.
+    // Se llama justo antes de debitar, cuando el débito ya no puede fallar. Devuelve PERMITIR o MARCAR, o lanza OperacionSospechosaException si se bloquea.
+    // Cada cuenta tiene su propio candado, asi los débitos de cuentas distintas no se esperan entre si.
+    public static Decision evaluarYRegistrar(String numeroCuenta, double monto) throws OperacionSospechosaException {
+        if (!habilitado) {
+            return Decision.PERMITIR;
+        }
+        // El presupuesto se mide desde antes de tomar el candado; si se excede solo se cuenta, la decisión se respeta igual
+        long inicio = System.nanoTime();
+        try {
+            long ahora = reloj.getAsLong();
+            if (ventanas.size() > MAX_CUENTAS) {
+                descartarInactivas(ahora);
+            }
+            while (true) {
+                VentanaCuenta v = ventanas.computeIfAbsent(numeroCuenta, k -> new VentanaCuenta());
+                synchronized (v) {
+                    // Si otro hilo la descartó por inactiva entre computeIfAbsent y el candado, se toma una nueva
+                    if (!v.descartada) {
+                        return evaluarYRegistrar(v, numeroCuenta, monto, ahora);
+                    }
+                }
+            }
+        } finally {
+            if (System.nanoTime() - inicio > PRESUPUESTO_NANOS) {
+                evaluacionesFueraDePresupuesto.incrementAndGet();
+            }
+        }
+    }
+
+    // Se llama con el candado de la ventana tomado
+    private static Decision evaluarYRegistrar(VentanaCuenta v, String numeroCuenta, double monto, long ahora) throws OperacionSospechosaException {
+        long casilla = ahora / MILIS_POR_CASILLA;
+        v.ultimaActividad = ahora;
+
+        int operaciones = 0;
+        double total = 0;
+        for (int i = 0; i < CASILLAS; i++) {
+            if (casilla - v.casilla[i] < CASILLAS) {
+                operaciones += v.conteo[i];
+                total += v.monto[i];
+            }
+        }
+        boolean historial = v.muestras >= MUESTRAS_MINIMAS;
+
+        if (operaciones >= MAX_OPERACIONES_MINUTO) {
+            throw new OperacionSospechosaException("Demasiadas operaciones en el último minuto. Intente más tarde.");
+        }
+        if (historial && monto > v.promedio * FACTOR_MONTO_BLOQUEO) {
+            throw new OperacionSospechosaException("El monto es inusualmente alto para esta cuenta. Comuníquese con el banco.");
+        }
+
+        Decision decision = Decision.PERMITIR;
+        if (total + monto > MAX_MONTO_MINUTO) {
+            decision = Decision.MARCAR;
+            marcar(numeroCuenta, monto, ahora, "Monto total del último minuto mayor al límite");
+        } else if (historial && monto > v.promedio * FACTOR_MONTO_MARCA) {
+            decision = Decision.MARCAR;
+            marcar(numeroCuenta, monto, ahora, "Monto muy superior al promedio de la cuenta");
+        }
+
+        int i = (int) (casilla % CASILLAS);
+        if (v.casilla[i] != casilla) {
+            v.casilla[i] = casilla;
+            v.conteo[i] = 0;
+            v.monto[i] = 0;
+        }
+        v.conteo[i]++;
+        v.monto[i] += monto;
+        v.promedio = v.muestras == 0 ? monto : ALFA * monto + (1 - ALFA) * v.promedio;
+        if (v.muestras < MUESTRAS_MINIMAS) {
+            v.muestras++;
+        }
+        return decision;
+    }
+
+    // Descarta las ventanas sin actividad en el último minuto (su conteo ya está vacío, solo se pierde el promedio de montos).
+    // Asi la memoria queda acotada por MAX_CUENTAS más las cuentas activas en el último minuto. Se barre como mucho una vez por casilla.
+    private static void descartarInactivas(long ahora) {
+        long proximo = proximoBarrido.get();
+        if (ahora < proximo || !proximoBarrido.compareAndSet(proximo, ahora + MILIS_POR_CASILLA)) {
+            return;
+        }
+        for (Map.Entry<String, VentanaCuenta> e : ventanas.entrySet()) {
+            VentanaCuenta v = e.getValue();
+            synchronized (v) {
+                if (!v.descartada && ahora - v.ultimaActividad >= MILIS_VENTANA) {
+                    v.descartada = true;
+                    ventanas.remove(e.getKey(), v);
+                }
+            }
+        }
+    }
+
+    // Guarda la operación marcada; si el registro está lleno se descarta la más antigua
+    private static void marcar(String numeroCuenta, double monto, long instante, String motivo) {
+        synchronized (marcadas) {
+            operacionesMarcadas++;
+            if (marcadas.size() == MAX_MARCADAS) {
+                marcadas.removeFirst();
+            }
+            marcadas.addLast(new OperacionMarcada(numeroCuenta, monto, instante, motivo));
+        }
+    }
+
+    // Permite apagar el motor (por ejemplo para comparar en el benchmark); apagado no toma candados ni mide tiempos
+    public static void setHabilitado(boolean valor) {
+        habilitado = valor;
+    }
+
+    // Cambia la fuente de tiempo en milisegundos (benchmark y simulaciones con reloj virtual)
+    public static void setReloj(LongSupplier nuevoReloj) {
+        reloj = nuevoReloj;
+    }
+
+    public static long getOperacionesMarcadas() {
+        synchronized (marcadas) {
+            return operacionesMarcadas;
+        }
+    }
+
+    // Últimas operaciones marcadas, de la más antigua a la más reciente
+    public static List<OperacionMarcada> getUltimasMarcadas() {
+        synchronized (marcadas) {
+            return new ArrayList<>(marcadas);
+        }
+    }
+
+    // Últimas operaciones marcadas de una cuenta
+    public static List<OperacionMarcada> getUltimasMarcadas(String numeroCuenta) {
+        ArrayList<OperacionMarcada> lista = new ArrayList<>();
+        for (OperacionMarcada m : getUltimasMarcadas()) {
+            if (m.getNumeroCuenta().equals(numeroCuenta)) {
+                lista.add(m);
+            }
+        }
+        return lista;
+    }
+
+    public static long getEvaluacionesFueraDePresupuesto() {
+        return evaluacionesFueraDePresupuesto.get();
+    }
+
+    public static int cantidadCuentas() {
+        return ventanas.size();
+    }
+
+    // Borra las ventanas y contadores
+    public static void reiniciar() {
+        ventanas.clear();
+        proximoBarrido.set(0);
+        synchronized (marcadas) {
+            marcadas.clear();
+            operacionesMarcadas = 0;
+        }
+        evaluacionesFueraDePresupuesto.set(0);
+    }
+
+    // Estadísticas de una cuenta: tamaño fijo sin importar cuántas operaciones haga. Se modifica solo con su propio candado.
+    private static class VentanaCuenta {
+        private final long[] casilla = new long[CASILLAS];
+        private final int[] conteo = new int[CASILLAS];
+        private final double[] monto = new double[CASILLAS];
+        private double promedio;
+        private int muestras;
+        private long ultimaActividad;
+        private boolean descartada;
+    }
+
+    // Débito que se dejó pasar pero quedó marcado para revisión
+    public static class OperacionMarcada {
+        private final String numeroCuenta;
+        private final double monto;
+        private final long instante;
+        private final String motivo;
+
+        private OperacionMarcada(String numeroCuenta, double monto, long instante, String motivo) {
+            this.numeroCuenta = numeroCuenta;
+            this.monto = monto;
+            this.instante = instante;
+            this.motivo = motivo;
+        }
+
+        public String getNumeroCuenta() {
+            return numeroCuenta;
+        }
+
+        public double getMonto() {
+            return monto;
+        }
+
+        public long getInstante() {
+            return instante;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+}
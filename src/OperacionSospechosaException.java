@@ -0,0 +1,8 @@
+/**
+ * OperacionSospechosaException: excepción
+ */
+public class OperacionSospechosaException extends Exception {
+    public OperacionSospechosaException(String message) {
+        super(message);
+    }
+}
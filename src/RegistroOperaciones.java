@@ -0,0 +1,131 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase RegistroOperaciones: recuerda los identificadores de operación ya procesados para que un reintento no se aplique dos veces y devuelva el resultado original. Guarda hasta 100.000 identificadores (unos 30 MB, a unos 300 bytes cada uno) y los olvida pasadas 24 horas. Si se llena de identificadores vigentes rechaza las operaciones nuevas hasta que venzan los más antiguos.
+ */
+public class RegistroOperaciones {
+
+    // Operación que se ejecuta una sola vez por identificador y devuelve el saldo resultante
+    public interface Operacion {
+        double ejecutar() throws Exception;
+    }
+
+    private static final long VIGENCIA_MILIS = 24L * 60 * 60 * 1000; // un día
+
+    private static ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private static ConcurrentLinkedQueue<String> orden = new ConcurrentLinkedQueue<>();
+    private static AtomicInteger ocupados = new AtomicInteger(); // lugares reservados, se cambia junto con cada alta y baja en entradas
+    private static volatile LongSupplier reloj = System::currentTimeMillis;
+    private static volatile int capacidad = 100_000; // identificadores de un día de operación
+
+    // Ejecuta la operación si el identificador es nuevo; si ya se vio devuelve (o relanza) el resultado original.
+    // Si el registro está lleno de identificadores vigentes rechaza la operación nueva con IllegalStateException en vez de perder la deduplicación.
+    public static double ejecutar(String clave, String huella, Operacion operacion) throws Exception {
+        purgar();
+        Entrada previa = entradas.get(clave);
+        if (previa != null) {
+            return resultadoOriginal(previa, huella);
+        }
+        // Se reserva el lugar antes de insertar, asi varios hilos a la vez no pasan la capacidad
+        if (!reservarLugar()) {
+            throw new IllegalStateException("El registro de operaciones está lleno. Intente más tarde.");
+        }
+
+        Entrada nueva = new Entrada(reloj.getAsLong(), huella);
+        previa = entradas.putIfAbsent(clave, nueva);
+        if (previa != null) {
+            ocupados.decrementAndGet();
+            return resultadoOriginal(previa, huella);
+        }
+
+        orden.add(clave);
+        try {
+            double resultado = operacion.ejecutar();
+            nueva.resultado.complete(resultado);
+            return resultado;
+        } catch (Throwable ex) {
+            // Cualquier falla (incluso un Error) completa la entrada para que los reintentos no esperen para siempre
+            nueva.resultado.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    // Si el intento original sigue en curso se espera a que termine
+    private static double resultadoOriginal(Entrada previa, String huella) throws Exception {
+        if (!previa.huella.equals(huella)) {
+            throw new EntradaInvalidaException("El identificador de operación ya se usó para otra operación.");
+        }
+        try {
+            return previa.resultado.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw (Exception) ex.getCause();
+        }
+    }
+
+    // Olvida los identificadores vencidos; nunca se descarta uno vigente o cuya operación sigue en curso
+    private static void purgar() {
+        long limite = reloj.getAsLong() - VIGENCIA_MILIS;
+        String clave;
+        while ((clave = orden.peek()) != null) {
+            Entrada e = entradas.get(clave);
+            if (e != null && (e.instante > limite || !e.resultado.isDone())) {
+                break;
+            }
+            if (orden.remove(clave) && e != null && entradas.remove(clave, e)) {
+                ocupados.decrementAndGet();
+            }
+        }
+    }
+
+    private static boolean reservarLugar() {
+        while (true) {
+            int actual = ocupados.get();
+            if (actual >= capacidad) {
+                return false;
+            }
+            if (ocupados.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Cambia la cantidad máxima de identificadores vigentes (por ejemplo para simulaciones con más operaciones que un día real)
+    public static void setCapacidad(int nuevaCapacidad) {
+        capacidad = nuevaCapacidad;
+    }
+
+    // Cambia la fuente de tiempo en milisegundos (simulaciones con reloj virtual)
+    public static void setReloj(LongSupplier nuevoReloj) {
+        reloj = nuevoReloj;
+    }
+
+    public static int cantidad() {
+        return entradas.size();
+    }
+
+    // Borra todos los identificadores registrados
+    public static void reiniciar() {
+        entradas.clear();
+        orden.clear();
+        ocupados.set(0);
+    }
+
+    private static class Entrada {
+        private final long instante;
+        private final String huella;
+        private final CompletableFuture<Double> resultado = new CompletableFuture<>();
+
+        private Entrada(long instante, String huella) {
+            this.instante = instante;
+            this.huella = huella;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clase SimuladorCarga: crea una población de usuarios en Banco y les envía una mezcla de inicios de sesión, depósitos, retiros, pagos, PIN fallidos y reintentos a una tasa objetivo, luego muestra throughput, percentiles de latencia y tasa de errores por tipo de operación.
+ * Las operaciones representan una jornada de varias horas comprimida a la tasa objetivo: MotorFraude y RegistroOperaciones usan un reloj virtual que reparte la jornada entre las operaciones. Ninguna decisión depende del tiempo real (el presupuesto de MotorFraude solo se cuenta), asi la secuencia y sus resultados dependen solo de la semilla. Entre dos corridas iguales solo cambian las latencias y la cantidad de evaluaciones fuera de presupuesto, que se miden con el reloj real.
+ * Uso: java SimuladorCarga [usuarios] [operaciones] [operaciones/segundo] [semilla] [normal|quincena|fin-de-mes] [horas simuladas]
+ */
+public class SimuladorCarga {
+
+    private enum TipoOperacion { LOGIN, DEPOSITO, RETIRO, PAGO, PIN_FALLIDO, REINTENTO }
+
+    private static final String[] SERVICIOS = {"Agua", "Luz", "Internet", "Telefonía"};
+    private static final double[] MONTOS_RETIRO = {20_000, 50_000, 100_000, 200_000, 500_000};
+    private static final int MAX_USUARIOS = 900_000;
+
+    public static void main(String[] args) {
+        int usuarios = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int operaciones = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        double tasa = args.length > 2 ? Double.parseDouble(args[2]) : 2_000;
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        String escenario = args.length > 4 ? args[4] : "normal";
+        double horas = args.length > 5 ? Double.parseDouble(args[5]) : 8;
+
+        if (usuarios <= 0 || operaciones <= 0 || tasa <= 0 || horas <= 0) {
+            System.out.println("Usuarios, operaciones, tasa y horas deben ser mayores que 0.");
+            return;
+        }
+        // Los números de cuenta son de 6 dígitos: no hay más de 900.000 distintos
+        if (usuarios > MAX_USUARIOS) {
+            System.out.printf("Usuarios no puede ser mayor que %,d.%n", MAX_USUARIOS);
+            return;
+        }
+        int[] pesos = pesosPorEscenario(escenario);
+        if (pesos == null) {
+            System.out.println("Escenario desconocido: " + escenario + " (use normal, quincena o fin-de-mes)");
+            return;
+        }
+
+        Random rnd = new Random(semilla);
+        long[] ahoraVirtual = {0L};
+        MotorFraude.setReloj(() -> ahoraVirtual[0]);
+        RegistroOperaciones.setReloj(() -> ahoraVirtual[0]);
+        RegistroOperaciones.setCapacidad(Math.max(operaciones, 100_000)); // asi ningún reintento encuentra el registro lleno
+        ArrayList<Usuario> poblacion = crearPoblacion(usuarios, rnd);
+
+        long[] latencias = new long[operaciones];
+        byte[] tipos = new byte[operaciones]; // ordinal del TipoOperacion de cada latencia
+        int[] conteos = new int[TipoOperacion.values().length];
+        int[] errores = new int[TipoOperacion.values().length];
+        TreeMap<String, Integer> erroresPorExcepcion = new TreeMap<>();
+        ArrayList<Intento> reintentables = new ArrayList<>();
+
+        long periodoNanos = (long) (1_000_000_000L / tasa);
+        double milisVirtualesPorOperacion = horas * 3_600_000 / operaciones;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operaciones; i++) {
+            TipoOperacion tipo = elegir(pesos, rnd);
+            if (tipo == TipoOperacion.REINTENTO && reintentables.isEmpty()) {
+                tipo = TipoOperacion.DEPOSITO; // todavía no hay nada que reintentar
+            }
+            Usuario u = poblacion.get(rnd.nextInt(poblacion.size()));
+            ahoraVirtual[0] = (long) (i * milisVirtualesPorOperacion);
+
+            // Espera hasta el instante programado; la latencia se mide desde ahí para no ocultar los atrasos
+            long programado = inicio + i * periodoNanos;
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            try {
+                ejecutar(tipo, u, i, rnd, reintentables);
+            } catch (Exception ex) {
+                errores[tipo.ordinal()]++;
+                erroresPorExcepcion.merge(ex.getClass().getSimpleName(), 1, Integer::sum);
+            }
+            latencias[i] = System.nanoTime() - programado;
+            tipos[i] = (byte) tipo.ordinal();
+            conteos[tipo.ordinal()]++;
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        imprimirReporte(escenario, usuarios, operaciones, tasa, semilla, horas, segundos, latencias, tipos, conteos, errores, erroresPorExcepcion);
+    }
+
+    // Pesos de cada TipoOperacion según el escenario (en el orden del enum)
+    private static int[] pesosPorEscenario(String escenario) {
+        switch (escenario) {
+            case "normal":
+                return new int[]{30, 15, 25, 15, 10, 5};
+            case "quincena":   // día de pago: predominan los retiros
+                return new int[]{30, 5, 45, 5, 10, 5};
+            case "fin-de-mes": // vencimiento de facturas: predominan los pagos
+                return new int[]{30, 5, 15, 35, 10, 5};
+            default:
+                return null;
+        }
+    }
+
+    // Crea usuarios con CuentaAhorros o CuentaCorriente, números de cuenta y saldos derivados de la semilla.
+    // Los números de cuenta salen de una mezcla parcial de 100000..999999, asi son distintos sin buscar en Banco (la población se crea en O(n)).
+    private static ArrayList<Usuario> crearPoblacion(int usuarios, Random rnd) {
+        int[] numeros = new int[MAX_USUARIOS];
+        for (int i = 0; i < numeros.length; i++) {
+            numeros[i] = 100_000 + i;
+        }
+        ArrayList<Usuario> poblacion = new ArrayList<>();
+        for (int i = 0; i < usuarios; i++) {
+            int j = i + rnd.nextInt(numeros.length - i);
+            int elegido = numeros[j];
+            numeros[j] = numeros[i];
+            numeros[i] = elegido;
+            String numeroCuenta = String.valueOf(elegido);
+            String pin = String.format("%04d", rnd.nextInt(10_000));
+            double saldo = 500_000 + rnd.nextInt(4_500_000);
+            Cuenta cuenta = rnd.nextBoolean()
+                    ? new CuentaAhorros(numeroCuenta, pin, saldo)
+                    : new CuentaCorriente(numeroCuenta, pin, saldo);
+            Usuario u = new Usuario("Usuario " + i, String.valueOf(1_000_000 + i), cuenta);
+            Banco.agregarUsuario(u);
+            poblacion.add(u);
+        }
+        return poblacion;
+    }
+
+    private static TipoOperacion elegir(int[] pesos, Random rnd) {
+        int total = 0;
+        for (int p : pesos) {
+            total += p;
+        }
+        int r = rnd.nextInt(total);
+        for (TipoOperacion tipo : TipoOperacion.values()) {
+            r -= pesos[tipo.ordinal()];
+            if (r < 0) {
+                return tipo;
+            }
+        }
+        return TipoOperacion.LOGIN;
+    }
+
+    private static void ejecutar(TipoOperacion tipo, Usuario u, int i, Random rnd, ArrayList<Intento> reintentables) throws Exception {
+        Cuenta cuenta = u.getCuenta();
+        String idOperacion = "sim-" + i;
+        switch (tipo) {
+            case LOGIN:
+                Banco.autenticar(cuenta.getNumeroCuenta(), cuenta.getPin());
+                break;
+            case PIN_FALLIDO:
+                String pinErrado = String.format("%04d", (Integer.parseInt(cuenta.getPin()) + 1 + rnd.nextInt(9_999)) % 10_000);
+                Banco.autenticar(cuenta.getNumeroCuenta(), pinErrado);
+                break;
+            case DEPOSITO:
+                double deposito = 50_000 + rnd.nextInt(950_000);
+                reintentables.add(new Intento(cuenta, idOperacion, TipoOperacion.DEPOSITO, deposito));
+                cuenta.depositar(idOperacion, deposito);
+                break;
+            case RETIRO:
+                double retiro = MONTOS_RETIRO[rnd.nextInt(MONTOS_RETIRO.length)];
+                reintentables.add(new Intento(cuenta, idOperacion, TipoOperacion.RETIRO, retiro));
+                cuenta.retirar(idOperacion, retiro);
+                break;
+            case PAGO:
+                cuenta.pagarServicio(idOperacion, 30_000 + rnd.nextInt(270_000), SERVICIOS[rnd.nextInt(SERVICIOS.length)]);
+                break;
+            case REINTENTO:
+                // Repite un depósito o retiro anterior con el mismo identificador, como un cajero que reenvía tras un timeout
+                Intento previo = reintentables.get(rnd.nextInt(reintentables.size()));
+                if (previo.tipo == TipoOperacion.DEPOSITO) {
+                    previo.cuenta.depositar(previo.idOperacion, previo.monto);
+                } else {
+                    previo.cuenta.retirar(previo.idOperacion, previo.monto);
+                }
+                break;
+        }
+    }
+
+    private static void imprimirReporte(String escenario, int usuarios, int operaciones, double tasa, long semilla, double horas, double segundos,
+                                        long[] latencias, byte[] tipos, int[] conteos, int[] errores, Map<String, Integer> erroresPorExcepcion) {
+        System.out.printf("Escenario %s, %,d usuarios, %,d operaciones en %.1f h simuladas, tasa objetivo %,.0f op/s, semilla %d%n",
+                escenario, usuarios, operaciones, horas, tasa, semilla);
+        System.out.printf("Duración %.2f s, throughput total %,.0f op/s%n%n", segundos, operaciones / segundos);
+        System.out.printf("%-12s %9s %9s %8s %9s %9s %9s %9s%n", "Operación", "Cantidad", "op/s", "% error", "p50 µs", "p95 µs", "p99 µs", "máx µs");
+        for (TipoOperacion tipo : TipoOperacion.values()) {
+            int n = conteos[tipo.ordinal()];
+            if (n == 0) {
+                continue;
+            }
+            long[] l = new long[n];
+            int k = 0;
+            for (int i = 0; i < latencias.length; i++) {
+                if (tipos[i] == tipo.ordinal()) {
+                    l[k++] = latencias[i];
+                }
+            }
+            Arrays.sort(l);
+            System.out.printf("%-12s %,9d %,9.0f %7.2f%% %9.1f %9.1f %9.1f %9.1f%n",
+                    tipo, n, n / segundos, 100.0 * errores[tipo.ordinal()] / n,
+                    percentil(l, 0.50) / 1e3, percentil(l, 0.95) / 1e3, percentil(l, 0.99) / 1e3, l[n - 1] / 1e3);
+        }
+        System.out.println();
+        System.out.println("Errores por excepción (PIN_FALLIDO siempre termina en AutenticacionException):");
+        for (Map.Entry<String, Integer> e : erroresPorExcepcion.entrySet()) {
+            System.out.printf("  %-30s %,d%n", e.getKey(), e.getValue());
+        }
+        System.out.printf("Operaciones marcadas por MotorFraude: %,d%n", MotorFraude.getOperacionesMarcadas());
+        System.out.printf("Evaluaciones de MotorFraude fuera de presupuesto: %,d%n", MotorFraude.getEvaluacionesFueraDePresupuesto());
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        int i = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(i, ordenadas.length - 1))];
+    }
+
+    // Depósito o retiro ya enviado que puede volver a enviarse con el mismo identificador
+    private static class Intento {
+        private final Cuenta cuenta;
+        private final String idOperacion;
+        private final TipoOperacion tipo;
+        private final double monto;
+
+        private Intento(Cuenta cuenta, String idOperacion, TipoOperacion tipo, double monto) {
+            this.cuenta = cuenta;
+            this.idOperacion = idOperacion;
+            this.tipo = tipo;
+            this.monto = monto;
+        }
+    }
+}